@@ -0,0 +1,113 @@
+package sph.sudoku;
+
+//Solves a puzzle by encoding it as a CNF (conjunctive normal form) boolean formula and handing it to
+//the CDCL SatSolver.  There is one variable for every combination of row, column and value, which is
+//true when that square holds that value.  Every square must hold exactly one value, and every row,
+//column and box must hold each value exactly once.  The clues are added as single-literal clauses.
+public class CdclEngine {
+	
+	private CdclEngine() {
+		
+	}
+	
+	//Solve the puzzle, returning a filled copy if a solution exists or an unchanged copy otherwise.
+	public static Puzzle solve(Puzzle puzzle, SolveEffort effort) {
+		effort.addNode();
+		
+		SatSolver sat = new SatSolver(Square.MAX_VALUE * Square.MAX_VALUE * Square.MAX_VALUE, effort);
+		boolean consistent = addConstraints(sat) && addClues(sat, puzzle);
+		
+		effort.addCopy();
+		Puzzle result = puzzle.copy();
+		
+		if (consistent && sat.solve()) {
+			for (int row = 0; row < Square.MAX_VALUE; row++) {
+				for (int col = 0; col < Square.MAX_VALUE; col++) {
+					for (int val = 1; val <= Square.MAX_VALUE; val++) {
+						if (sat.getValue(getVariable(row, col, val))) {
+							result.getSquare(row, col).setVal(val);
+						}
+					}
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	//Return the variable number that is true when the square at the coordinates holds the value.
+	protected static int getVariable(int row, int col, int val) {
+		return (row * Square.MAX_VALUE + col) * Square.MAX_VALUE + val;
+	}
+	
+	//Add the clauses that describe the rules of Sudoku, independent of any clues.
+	private static boolean addConstraints(SatSolver sat) {
+		//Every square holds exactly one value
+		for (int row = 0; row < Square.MAX_VALUE; row++) {
+			for (int col = 0; col < Square.MAX_VALUE; col++) {
+				int[] variables = new int[Square.MAX_VALUE];
+				for (int val = 1; val <= Square.MAX_VALUE; val++) {
+					variables[val - 1] = getVariable(row, col, val);
+				}
+				if (!addExactlyOne(sat, variables)) {
+					return false;
+				}
+			}
+		}
+		
+		//Every row, column and box holds each value exactly once
+		for (int val = 1; val <= Square.MAX_VALUE; val++) {
+			for (int i = 0; i < Square.MAX_VALUE; i++) {
+				int[] rowVariables = new int[Square.MAX_VALUE];
+				int[] colVariables = new int[Square.MAX_VALUE];
+				int[] boxVariables = new int[Square.MAX_VALUE];
+				
+				int boxRowMin = (i / Square.BOX_SIZE) * Square.BOX_SIZE;
+				int boxColMin = (i % Square.BOX_SIZE) * Square.BOX_SIZE;
+				
+				for (int j = 0; j < Square.MAX_VALUE; j++) {
+					rowVariables[j] = getVariable(i, j, val);
+					colVariables[j] = getVariable(j, i, val);
+					boxVariables[j] = getVariable(boxRowMin + j / Square.BOX_SIZE, boxColMin + j % Square.BOX_SIZE, val);
+				}
+				
+				if (!addExactlyOne(sat, rowVariables) || !addExactlyOne(sat, colVariables)
+						|| !addExactlyOne(sat, boxVariables)) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	//Add a single-literal clause for every filled square in the puzzle.
+	private static boolean addClues(SatSolver sat, Puzzle puzzle) {
+		for (int row = 0; row < Square.MAX_VALUE; row++) {
+			for (int col = 0; col < Square.MAX_VALUE; col++) {
+				Integer val = puzzle.getSquare(row, col).getValue();
+				if (val != null && !sat.addClause(getVariable(row, col, val))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	
+	//Add clauses requiring exactly one of the variables to be true: one clause saying at least one
+	//is true, and one clause for every pair saying they are not both true.
+	private static boolean addExactlyOne(SatSolver sat, int[] variables) {
+		if (!sat.addClause(variables)) {
+			return false;
+		}
+		for (int i = 0; i < variables.length; i++) {
+			for (int j = i + 1; j < variables.length; j++) {
+				if (!sat.addClause(-variables[i], -variables[j])) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,347 @@
+package sph.sudoku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+//Stateful, incrementally maintained view of a puzzle for interactive use.  Every set, clear and undo
+//touches only the changed square and its peers (the other squares in its row, column and box), and
+//keeps the candidate values, conflict flags and solved state of every square current at all times,
+//so that no query needs to rescan or copy the board.
+//
+//For each row, column and box the session counts how many squares hold each value.  The candidates
+//of a square are the values that none of its peers hold, stored as a bit mask with bit N set when N
+//is a candidate.  A square's own value is not part of its candidates, so changing a square only
+//affects the candidate masks of its peers, and only for the old and new values.
+public class PuzzleSession {
+	
+	private static final int SIZE = Square.MAX_VALUE;
+	private static final int CELLS = SIZE * SIZE;
+	private static final int ALL_VALUES = ((1 << (SIZE + 1)) - 1) & ~1;
+	private static final int EMPTY = 0;
+	private static final int UNDO_VALUE_BITS = 4;
+	private static final int UNDO_VALUE_MASK = (1 << UNDO_VALUE_BITS) - 1;
+	
+	//For every square, the indexes of its row, column and box units, and the indexes of its peers
+	private static final int[][] UNITS_OF_CELL = new int[CELLS][3];
+	private static final int[][] PEERS = new int[CELLS][];
+	//For every unit, the indexes of its squares
+	private static final int[][] CELLS_OF_UNIT = new int[3 * SIZE][SIZE];
+	
+	static {
+		int[] unitSizes = new int[3 * SIZE];
+		for (int cell = 0; cell < CELLS; cell++) {
+			int row = cell / SIZE;
+			int col = cell % SIZE;
+			int box = (row / Square.BOX_SIZE) * Square.BOX_SIZE + col / Square.BOX_SIZE;
+			UNITS_OF_CELL[cell][0] = row;
+			UNITS_OF_CELL[cell][1] = SIZE + col;
+			UNITS_OF_CELL[cell][2] = 2 * SIZE + box;
+			for (int unit : UNITS_OF_CELL[cell]) {
+				CELLS_OF_UNIT[unit][unitSizes[unit]++] = cell;
+			}
+		}
+		
+		for (int cell = 0; cell < CELLS; cell++) {
+			boolean[] isPeer = new boolean[CELLS];
+			for (int unit : UNITS_OF_CELL[cell]) {
+				for (int other : CELLS_OF_UNIT[unit]) {
+					isPeer[other] = (other != cell);
+				}
+			}
+			List<Integer> peers = new ArrayList<Integer>();
+			for (int other = 0; other < CELLS; other++) {
+				if (isPeer[other]) {
+					peers.add(other);
+				}
+			}
+			PEERS[cell] = new int[peers.size()];
+			for (int i = 0; i < peers.size(); i++) {
+				PEERS[cell][i] = peers.get(i);
+			}
+		}
+	}
+	
+	private final Puzzle puzzle;
+	private final int[] values = new int[CELLS];
+	private final boolean[] clues = new boolean[CELLS];
+	private final int[] candidates = new int[CELLS];
+	private final boolean[] conflicting = new boolean[CELLS];
+	private final int[] unitValueCounts = new int[3 * SIZE * (SIZE + 1)];
+	
+	private int filledCount = 0;
+	private int conflictCount = 0;
+	private int deadEndCount = 0;
+	
+	//Each undo entry packs the square index and its previous value into a single int
+	private int[] undoStack = new int[64];
+	private int undoSize = 0;
+	
+	//Cached result of the still-solvable search, valid while no move has been made since
+	private long version = 0;
+	private long solvableVersion = -1;
+	private boolean solvable;
+	
+	//Start a session from the given puzzle.  Its filled squares become clues that cannot be
+	//changed.  The puzzle is copied, so later changes to it do not affect the session.
+	public PuzzleSession(Puzzle puzzle) {
+		this.puzzle = puzzle.copy();
+		Arrays.fill(candidates, ALL_VALUES);
+		
+		for (int cell = 0; cell < CELLS; cell++) {
+			Integer val = this.puzzle.getSquare(cell / SIZE, cell % SIZE).getValue();
+			if (val != null) {
+				clues[cell] = true;
+				changeValue(cell, val);
+			}
+		}
+	}
+	
+	//Place a value in an empty or previously played square.
+	public void set(int row, int col, int val) {
+		if (val < 1 || val > SIZE) {
+			throw new IllegalArgumentException("Value must be within legal range");
+		}
+		play(getEditableCell(row, col), val);
+	}
+	
+	//Empty a previously played square.
+	public void clear(int row, int col) {
+		play(getEditableCell(row, col), EMPTY);
+	}
+	
+	//Revert the most recent set or clear.  Returns false if there is nothing left to undo.
+	public boolean undo() {
+		if (undoSize == 0) {
+			return false;
+		}
+		int entry = undoStack[--undoSize];
+		changeValue(entry >> UNDO_VALUE_BITS, entry & UNDO_VALUE_MASK);
+		return true;
+	}
+	
+	public Integer getValue(int row, int col) {
+		int val = values[row * SIZE + col];
+		return val == EMPTY ? null : val;
+	}
+	
+	public boolean isClue(int row, int col) {
+		return clues[row * SIZE + col];
+	}
+	
+	//Return the values that do not appear in any peer of the square, in ascending order.
+	public List<Integer> getCandidates(int row, int col) {
+		return toValueList(candidates[row * SIZE + col]);
+	}
+	
+	//Return the candidates of the square as a bit mask with bit N set when N is a candidate.  This
+	//is the allocation-free form of getCandidates.
+	public int getCandidateMask(int row, int col) {
+		return candidates[row * SIZE + col];
+	}
+	
+	//Return whether the square holds a value that also appears in one of its peers.
+	public boolean isConflicting(int row, int col) {
+		return conflicting[row * SIZE + col];
+	}
+	
+	public boolean hasConflicts() {
+		return conflictCount > 0;
+	}
+	
+	public boolean isFilled() {
+		return filledCount == CELLS;
+	}
+	
+	public boolean isSolved() {
+		return isFilled() && !hasConflicts();
+	}
+	
+	//Return a square whose value can be deduced for certain from the current candidates, with that
+	//single value as its only possible value, or null if there is none.  A square with only one
+	//candidate is preferred, followed by a value that has only one possible square in a row, column
+	//or box.  No hint is given while the board has conflicts or an empty square with no candidates,
+	//as it can no longer be completed.
+	public GuessData getNextHint() {
+		if (conflictCount > 0 || deadEndCount > 0) {
+			return null;
+		}
+		
+		for (int cell = 0; cell < CELLS; cell++) {
+			if (values[cell] == EMPTY && Integer.bitCount(candidates[cell]) == 1) {
+				return createHint(cell, Integer.numberOfTrailingZeros(candidates[cell]));
+			}
+		}
+		
+		for (int unit = 0; unit < 3 * SIZE; unit++) {
+			for (int val = 1; val <= SIZE; val++) {
+				if (unitValueCounts[unit * (SIZE + 1) + val] > 0) {
+					continue;
+				}
+				
+				int onlyCell = -1;
+				int placements = 0;
+				for (int cell : CELLS_OF_UNIT[unit]) {
+					if (values[cell] == EMPTY && (candidates[cell] & (1 << val)) != 0) {
+						onlyCell = cell;
+						placements++;
+					}
+				}
+				if (placements == 1) {
+					return createHint(onlyCell, val);
+				}
+			}
+		}
+		
+		return null;
+	}
+	
+	//Return whether the current board can still be completed into a full solution.  Conflicts and
+	//empty squares with no candidates are known from the incremental state and answer immediately.
+	//Otherwise the board is handed to the CDCL engine, whose clause learning keeps sparse boards from
+	//causing an exponential search, and its result is cached until the next move.
+	public boolean isStillSolvable() {
+		if (conflictCount > 0 || deadEndCount > 0) {
+			return false;
+		}
+		if (solvableVersion != version) {
+			solvable = CdclEngine.solve(puzzle, new SolveEffort()).isFilled();
+			solvableVersion = version;
+		}
+		return solvable;
+	}
+	
+	//Return a copy of the current board.
+	public Puzzle getPuzzle() {
+		return puzzle.copy();
+	}
+	
+	@Override
+	public String toString() {
+		return puzzle.toString();
+	}
+	
+	private int getEditableCell(int row, int col) {
+		if (row < 0 || row >= SIZE || col < 0 || col >= SIZE) {
+			throw new IllegalArgumentException("Square must be within the puzzle");
+		}
+		int cell = row * SIZE + col;
+		if (clues[cell]) {
+			throw new IllegalStateException("Clue squares cannot be changed");
+		}
+		return cell;
+	}
+	
+	//Record the square's previous value for undo and apply the new one.
+	private void play(int cell, int val) {
+		if (values[cell] == val) {
+			return;
+		}
+		if (undoSize == undoStack.length) {
+			undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+		}
+		undoStack[undoSize++] = (cell << UNDO_VALUE_BITS) | values[cell];
+		changeValue(cell, val);
+	}
+	
+	//Change the value of a square and bring the counts, candidates and conflict flags of the square
+	//and its peers up to date.  Only the old and new values can change for any peer.
+	private void changeValue(int cell, int val) {
+		int oldVal = values[cell];
+		if (oldVal == val) {
+			return;
+		}
+		
+		if (isDeadEnd(cell)) {
+			deadEndCount--;
+		}
+		
+		for (int unit : UNITS_OF_CELL[cell]) {
+			if (oldVal != EMPTY) {
+				unitValueCounts[unit * (SIZE + 1) + oldVal]--;
+			}
+			if (val != EMPTY) {
+				unitValueCounts[unit * (SIZE + 1) + val]++;
+			}
+		}
+		
+		values[cell] = val;
+		filledCount += (oldVal == EMPTY ? 1 : 0) - (val == EMPTY ? 1 : 0);
+		puzzle.getSquare(cell / SIZE, cell % SIZE).setVal(val == EMPTY ? null : val);
+		version++;
+		
+		for (int peer : PEERS[cell]) {
+			if (oldVal != EMPTY) {
+				refreshCandidate(peer, oldVal);
+			}
+			if (val != EMPTY) {
+				refreshCandidate(peer, val);
+			}
+			if (values[peer] != EMPTY && (values[peer] == oldVal || values[peer] == val)) {
+				refreshConflict(peer);
+			}
+		}
+		refreshConflict(cell);
+		
+		if (isDeadEnd(cell)) {
+			deadEndCount++;
+		}
+	}
+	
+	//Recompute whether the value is a candidate of the square.  The square's own value is
+	//discounted, so only its peers can rule a value out.
+	private void refreshCandidate(int cell, int val) {
+		int own = (values[cell] == val ? 1 : 0);
+		boolean allowed = true;
+		for (int unit : UNITS_OF_CELL[cell]) {
+			if (unitValueCounts[unit * (SIZE + 1) + val] > own) {
+				allowed = false;
+			}
+		}
+		
+		boolean wasDeadEnd = isDeadEnd(cell);
+		candidates[cell] = allowed ? candidates[cell] | (1 << val) : candidates[cell] & ~(1 << val);
+		boolean nowDeadEnd = isDeadEnd(cell);
+		if (wasDeadEnd != nowDeadEnd) {
+			deadEndCount += nowDeadEnd ? 1 : -1;
+		}
+	}
+	
+	private void refreshConflict(int cell) {
+		int val = values[cell];
+		boolean nowConflicting = false;
+		if (val != EMPTY) {
+			for (int unit : UNITS_OF_CELL[cell]) {
+				if (unitValueCounts[unit * (SIZE + 1) + val] > 1) {
+					nowConflicting = true;
+				}
+			}
+		}
+		
+		if (conflicting[cell] != nowConflicting) {
+			conflicting[cell] = nowConflicting;
+			conflictCount += nowConflicting ? 1 : -1;
+		}
+	}
+	
+	//An empty square with no candidates means the board can no longer be completed
+	private boolean isDeadEnd(int cell) {
+		return values[cell] == EMPTY && candidates[cell] == 0;
+	}
+	
+	private GuessData createHint(int cell, int val) {
+		return new GuessData(cell / SIZE, cell % SIZE, Collections.singletonList(val));
+	}
+	
+	private static List<Integer> toValueList(int mask) {
+		List<Integer> result = new ArrayList<Integer>();
+		for (int val = 1; val <= SIZE; val++) {
+			if ((mask & (1 << val)) != 0) {
+				result.add(val);
+			}
+		}
+		return result;
+	}
+
+}
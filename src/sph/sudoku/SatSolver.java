@@ -0,0 +1,497 @@
+package sph.sudoku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//Self-contained conflict-driven clause-learning (CDCL) SAT solver.  Variables are numbered from 1
+//and literals use the DIMACS convention: a positive number is the variable itself and a negative
+//number is its negation.  Internally each literal is stored as (2 * var) for the positive form and
+//(2 * var + 1) for the negative form, so that negating a literal is a single XOR.
+//
+//The solver uses two watched literals per clause for unit propagation, first-UIP conflict analysis
+//to learn a new clause from each contradiction, non-chronological backjumping, VSIDS-style variable
+//activity for branching, phase saving, and restarts on the Luby sequence.  It contains no source of
+//randomness, so the same input always produces the same search and the same effort counters.
+public class SatSolver {
+	
+	private static final byte UNASSIGNED = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = -1;
+	
+	private static final double ACTIVITY_DECAY = 0.95;
+	private static final double ACTIVITY_RESCALE_LIMIT = 1e100;
+	private static final int RESTART_UNIT = 100;
+	
+	private final int numVars;
+	private final SolveEffort effort;
+	
+	//Per-variable state, indexed by variable number
+	private final byte[] assignment;
+	private final int[] level;
+	private final int[][] reason;
+	private final boolean[] savedPhase;
+	private final boolean[] seen;
+	private final double[] activity;
+	private double activityIncrement = 1.0;
+	
+	//Per-literal lists of clauses that are currently watching that literal
+	private final List< List<int[]> > watches;
+	
+	//Assignment trail in chronological order, and the trail position at which each decision level starts
+	private final int[] trail;
+	private int trailSize = 0;
+	private int propagationHead = 0;
+	private final List<Integer> levelStarts = new ArrayList<Integer>();
+	
+	private final VariableHeap heap;
+	private boolean triviallyUnsatisfiable = false;
+	
+	public SatSolver(int numVars, SolveEffort effort) {
+		this.numVars = numVars;
+		this.effort = effort;
+		
+		assignment = new byte[numVars + 1];
+		level = new int[numVars + 1];
+		reason = new int[numVars + 1][];
+		savedPhase = new boolean[numVars + 1];
+		seen = new boolean[numVars + 1];
+		activity = new double[numVars + 1];
+		trail = new int[numVars + 1];
+		
+		watches = new ArrayList< List<int[]> >(2 * numVars + 2);
+		for (int i = 0; i < 2 * numVars + 2; i++) {
+			watches.add(new ArrayList<int[]>());
+		}
+		
+		heap = new VariableHeap();
+		for (int var = 1; var <= numVars; var++) {
+			heap.insert(var);
+		}
+	}
+	
+	//Add a clause given as DIMACS literals.  Must be called before solve().  Duplicate literals are
+	//removed and tautologies are ignored.  Returns false if the formula is now known to be unsatisfiable.
+	public boolean addClause(int... dimacsLiterals) {
+		if (triviallyUnsatisfiable) {
+			return false;
+		}
+		
+		int[] literals = new int[dimacsLiterals.length];
+		int size = 0;
+		for (int dimacsLiteral : dimacsLiterals) {
+			int var = Math.abs(dimacsLiteral);
+			if (var == 0 || var > numVars) {
+				throw new IllegalArgumentException("Literal refers to an unknown variable: " + dimacsLiteral);
+			}
+			int literal = toLiteral(dimacsLiteral);
+			
+			boolean duplicate = false;
+			for (int i = 0; i < size; i++) {
+				if (literals[i] == literal) {
+					duplicate = true;
+				}
+				else if (literals[i] == (literal ^ 1)) {
+					return true;
+				}
+			}
+			if (!duplicate) {
+				literals[size++] = literal;
+			}
+		}
+		
+		if (size == 0) {
+			triviallyUnsatisfiable = true;
+			return false;
+		}
+		
+		if (size == 1) {
+			byte value = valueOf(literals[0]);
+			if (value == FALSE) {
+				triviallyUnsatisfiable = true;
+				return false;
+			}
+			if (value == UNASSIGNED) {
+				assign(literals[0], null);
+			}
+			return true;
+		}
+		
+		attachClause(Arrays.copyOf(literals, size));
+		return true;
+	}
+	
+	//Search for a satisfying assignment.  Returns true if one was found, in which case it can be read
+	//with getValue(), or false if the formula is unsatisfiable.
+	public boolean solve() {
+		//A contradiction among the clauses themselves, or from propagating them before any decision,
+		//is still a conflict the solver has proven
+		if (triviallyUnsatisfiable || propagate() != null) {
+			effort.addConflict();
+			return false;
+		}
+		
+		int restartNumber = 1;
+		long conflictsUntilRestart = RESTART_UNIT * luby(restartNumber);
+		
+		while (true) {
+			int[] conflict = propagate();
+			
+			if (conflict != null) {
+				effort.addConflict();
+				if (getDecisionLevel() == 0) {
+					return false;
+				}
+				
+				int[] learned = analyze(conflict);
+				backtrack(learned.length > 1 ? level[learned[1] >> 1] : 0);
+				learnClause(learned);
+				decayActivity();
+				conflictsUntilRestart--;
+			}
+			else {
+				//Restart the search from the top, keeping learned clauses, saved phases and activities
+				if (conflictsUntilRestart <= 0) {
+					effort.addRestart();
+					restartNumber++;
+					conflictsUntilRestart = RESTART_UNIT * luby(restartNumber);
+					backtrack(0);
+					continue;
+				}
+				
+				int var = pickBranchVariable();
+				if (var == 0) {
+					return true;
+				}
+				
+				effort.addNode();
+				effort.addGuess();
+				levelStarts.add(trailSize);
+				assign(2 * var + (savedPhase[var] ? 0 : 1), null);
+			}
+		}
+	}
+	
+	//Return the value of a variable in the satisfying assignment found by solve()
+	public boolean getValue(int var) {
+		return assignment[var] == TRUE;
+	}
+	
+	private static int toLiteral(int dimacsLiteral) {
+		return dimacsLiteral > 0 ? 2 * dimacsLiteral : 2 * -dimacsLiteral + 1;
+	}
+	
+	private byte valueOf(int literal) {
+		byte value = assignment[literal >> 1];
+		return (literal & 1) == 0 ? value : (byte)-value;
+	}
+	
+	private int getDecisionLevel() {
+		return levelStarts.size();
+	}
+
+	//Watch the first two literals of a clause of length 2 or more
+	private void attachClause(int[] clause) {
+		watches.get(clause[0]).add(clause);
+		watches.get(clause[1]).add(clause);
+	}
+	
+	private void assign(int literal, int[] reasonClause) {
+		int var = literal >> 1;
+		assignment[var] = (literal & 1) == 0 ? TRUE : FALSE;
+		level[var] = getDecisionLevel();
+		reason[var] = reasonClause;
+		trail[trailSize++] = literal;
+	}
+	
+	//Perform unit propagation over the watched literals for every assignment not yet propagated.
+	//Returns the conflicting clause if a contradiction is reached, or null otherwise.  A clause that
+	//forces an assignment always has the forced literal in position 0, which conflict analysis relies on.
+	private int[] propagate() {
+		while (propagationHead < trailSize) {
+			int falseLiteral = trail[propagationHead++] ^ 1;
+			effort.addPropagationStep();
+			
+			List<int[]> watchList = watches.get(falseLiteral);
+			int kept = 0;
+			int i = 0;
+			while (i < watchList.size()) {
+				int[] clause = watchList.get(i++);
+				
+				if (clause[0] == falseLiteral) {
+					clause[0] = clause[1];
+					clause[1] = falseLiteral;
+				}
+				
+				//Already satisfied by the other watch
+				if (valueOf(clause[0]) == TRUE) {
+					watchList.set(kept++, clause);
+					continue;
+				}
+				
+				//Look for a replacement literal to watch
+				boolean moved = false;
+				for (int k = 2; k < clause.length; k++) {
+					if (valueOf(clause[k]) != FALSE) {
+						clause[1] = clause[k];
+						clause[k] = falseLiteral;
+						watches.get(clause[1]).add(clause);
+						moved = true;
+						break;
+					}
+				}
+				if (moved) {
+					continue;
+				}
+				
+				//No replacement: the clause is either unit or in conflict
+				watchList.set(kept++, clause);
+				if (valueOf(clause[0]) == FALSE) {
+					while (i < watchList.size()) {
+						watchList.set(kept++, watchList.get(i++));
+					}
+					truncate(watchList, kept);
+					propagationHead = trailSize;
+					return clause;
+				}
+				assign(clause[0], clause);
+			}
+			truncate(watchList, kept);
+		}
+		return null;
+	}
+	
+	private static void truncate(List<int[]> list, int size) {
+		while (list.size() > size) {
+			list.remove(list.size() - 1);
+		}
+	}
+	
+	//Derive a learned clause from a conflict using the first unique implication point.  The asserting
+	//literal is placed first and the literal with the highest remaining decision level second, so that
+	//both are valid watches once the solver backjumps to that level.
+	private int[] analyze(int[] conflict) {
+		List<Integer> learned = new ArrayList<Integer>();
+		learned.add(0);
+		
+		int pathCount = 0;
+		int literal = -1;
+		int index = trailSize - 1;
+		int[] clause = conflict;
+		
+		do {
+			for (int i = (literal == -1 ? 0 : 1); i < clause.length; i++) {
+				int q = clause[i];
+				int var = q >> 1;
+				if (!seen[var] && level[var] > 0) {
+					bumpActivity(var);
+					seen[var] = true;
+					if (level[var] >= getDecisionLevel()) {
+						pathCount++;
+					}
+					else {
+						learned.add(q);
+					}
+				}
+			}
+			
+			while (!seen[trail[index] >> 1]) {
+				index--;
+			}
+			literal = trail[index--];
+			clause = reason[literal >> 1];
+			seen[literal >> 1] = false;
+			pathCount--;
+		} while (pathCount > 0);
+		
+		learned.set(0, literal ^ 1);
+		
+		int[] result = new int[learned.size()];
+		int highestIndex = 1;
+		for (int i = 0; i < result.length; i++) {
+			result[i] = learned.get(i);
+			seen[result[i] >> 1] = false;
+			if (i > 1 && level[result[i] >> 1] > level[result[highestIndex] >> 1]) {
+				highestIndex = i;
+			}
+		}
+		
+		if (result.length > 1) {
+			int swap = result[1];
+			result[1] = result[highestIndex];
+			result[highestIndex] = swap;
+		}
+		
+		return result;
+	}
+	
+	//Store a learned clause and assert its first literal at the current (backjumped) level
+	private void learnClause(int[] learned) {
+		if (learned.length == 1) {
+			assign(learned[0], null);
+		}
+		else {
+			attachClause(learned);
+			assign(learned[0], learned);
+		}
+	}
+	
+	//Undo every assignment above the given decision level, remembering each variable's phase
+	private void backtrack(int targetLevel) {
+		if (getDecisionLevel() <= targetLevel) {
+			return;
+		}
+		
+		int start = levelStarts.get(targetLevel);
+		for (int i = trailSize - 1; i >= start; i--) {
+			int var = trail[i] >> 1;
+			savedPhase[var] = assignment[var] == TRUE;
+			assignment[var] = UNASSIGNED;
+			reason[var] = null;
+			if (!heap.contains(var)) {
+				heap.insert(var);
+			}
+		}
+		
+		trailSize = start;
+		propagationHead = start;
+		while (levelStarts.size() > targetLevel) {
+			levelStarts.remove(levelStarts.size() - 1);
+		}
+	}
+	
+	//Return the unassigned variable with the highest activity, or 0 if every variable is assigned
+	private int pickBranchVariable() {
+		while (!heap.isEmpty()) {
+			int var = heap.removeMax();
+			if (assignment[var] == UNASSIGNED) {
+				return var;
+			}
+		}
+		return 0;
+	}
+	
+	private void bumpActivity(int var) {
+		activity[var] += activityIncrement;
+		if (activity[var] > ACTIVITY_RESCALE_LIMIT) {
+			for (int i = 1; i <= numVars; i++) {
+				activity[i] /= ACTIVITY_RESCALE_LIMIT;
+			}
+			activityIncrement /= ACTIVITY_RESCALE_LIMIT;
+		}
+		if (heap.contains(var)) {
+			heap.increased(var);
+		}
+	}
+	
+	//Rather than decaying every activity, grow the increment so recent bumps outweigh older ones
+	private void decayActivity() {
+		activityIncrement /= ACTIVITY_DECAY;
+	}
+	
+	//Return the i-th element (1-based) of the Luby sequence: 1 1 2 1 1 2 4 1 1 2 1 1 2 4 8 ...
+	protected static long luby(int i) {
+		int index = i - 1;
+		int size = 1;
+		int exponent = 0;
+		while (size < index + 1) {
+			exponent++;
+			size = 2 * size + 1;
+		}
+		while (size - 1 != index) {
+			size = (size - 1) >> 1;
+			exponent--;
+			index = index % size;
+		}
+		return 1L << exponent;
+	}
+	
+	//Binary max-heap of variables ordered by activity, with ties broken by the lower variable number
+	//so that branching stays deterministic.
+	private class VariableHeap {
+		
+		private final int[] heap = new int[numVars];
+		private final int[] positions = new int[numVars + 1];
+		private int size = 0;
+		
+		VariableHeap() {
+			Arrays.fill(positions, -1);
+		}
+		
+		boolean isEmpty() {
+			return size == 0;
+		}
+		
+		boolean contains(int var) {
+			return positions[var] >= 0;
+		}
+		
+		void insert(int var) {
+			heap[size] = var;
+			positions[var] = size;
+			size++;
+			siftUp(size - 1);
+		}
+		
+		void increased(int var) {
+			siftUp(positions[var]);
+		}
+		
+		int removeMax() {
+			int top = heap[0];
+			positions[top] = -1;
+			size--;
+			if (size > 0) {
+				heap[0] = heap[size];
+				positions[heap[0]] = 0;
+				siftDown(0);
+			}
+			return top;
+		}
+		
+		private boolean before(int a, int b) {
+			if (activity[a] != activity[b]) {
+				return activity[a] > activity[b];
+			}
+			return a < b;
+		}
+		
+		private void siftUp(int index) {
+			int var = heap[index];
+			while (index > 0) {
+				int parent = (index - 1) / 2;
+				if (!before(var, heap[parent])) {
+					break;
+				}
+				heap[index] = heap[parent];
+				positions[heap[index]] = index;
+				index = parent;
+			}
+			heap[index] = var;
+			positions[var] = index;
+		}
+		
+		private void siftDown(int index) {
+			int var = heap[index];
+			while (true) {
+				int child = 2 * index + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && before(heap[child + 1], heap[child])) {
+					child++;
+				}
+				if (!before(heap[child], var)) {
+					break;
+				}
+				heap[index] = heap[child];
+				positions[heap[index]] = index;
+				index = child;
+			}
+			heap[index] = var;
+			positions[var] = index;
+		}
+		
+	}
+
+}
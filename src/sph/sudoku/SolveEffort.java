@@ -0,0 +1,75 @@
+package sph.sudoku;
+
+//Deterministic counters describing how much work a solve took.  Unlike wall-clock timing, these
+//values are identical from run to run for the same puzzle, which makes them suitable for
+//catching changes that quietly make the solver slower.
+public class SolveEffort {
+	
+	private long nodes;
+	private long guesses;
+	private long copies;
+	private long propagationSteps;
+	private long conflicts;
+	private long restarts;
+	
+	//Record one visit of a node in the search tree.
+	public void addNode() {
+		nodes++;
+	}
+	
+	//Record one trial value being placed in a square.
+	public void addGuess() {
+		guesses++;
+	}
+	
+	//Record one copy of the puzzle state.
+	public void addCopy() {
+		copies++;
+	}
+	
+	//Record one attempt at deducing and filling a single square.
+	public void addPropagationStep() {
+		propagationSteps++;
+	}
+
+	//Record one contradiction reached during the search.
+	public void addConflict() {
+		conflicts++;
+	}
+	
+	//Record one restart of the search from the beginning.
+	public void addRestart() {
+		restarts++;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getGuesses() {
+		return guesses;
+	}
+
+	public long getCopies() {
+		return copies;
+	}
+
+	public long getPropagationSteps() {
+		return propagationSteps;
+	}
+
+	public long getConflicts() {
+		return conflicts;
+	}
+
+	public long getRestarts() {
+		return restarts;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("nodes=%d guesses=%d copies=%d propagationSteps=%d conflicts=%d restarts=%d",
+				nodes, guesses, copies, propagationSteps, conflicts, restarts);
+	}
+
+}
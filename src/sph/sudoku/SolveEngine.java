@@ -0,0 +1,11 @@
+package sph.sudoku;
+
+//The search engines available for solving a puzzle.  Backtracking is the original depth-limited
+//guessing search.  Cdcl encodes the puzzle as a boolean satisfiability problem and solves it with a
+//conflict-driven clause-learning core, which avoids rediscovering the same contradiction in many
+//branches and is far more efficient on the hardest puzzles.
+public enum SolveEngine {
+	
+	Backtracking, Cdcl;
+
+}
@@ -10,15 +10,27 @@ public class Solver {
 	
 	private static final int DEPTH_LIMIT_MAX = 3;
 
-	//Main method for running the Solver.  Accepts one parameter: the input file.
+	//Main method for running the Solver.  Accepts one required parameter, the input file, and
+	//an optional second parameter naming the engine to use (Backtracking or Cdcl).
 	public static void main (String [] args) {
 		
-		//Require the input file parameter
-		if (args == null || args.length != 1) {
-			System.out.println("Please provide an input filename");
+		//Require the input file parameter, allowing only the optional engine parameter besides it
+		if (args == null || args.length < 1 || args.length > 2) {
+			System.out.println("Usage: Solver <input file> [Backtracking|Cdcl]");
 			System.exit(1);
 		}
 		
+		SolveEngine engine = SolveEngine.Backtracking;
+		if (args.length == 2) {
+			try {
+				engine = SolveEngine.valueOf(args[1]);
+			}
+			catch (IllegalArgumentException ex) {
+				System.out.println("Invalid engine provided");
+				System.exit(1);
+			}
+		}
+		
 		File fileInput = new File(args[0]);
 		
 		System.out.println(String.format("Running on file %s", fileInput.toString()));
@@ -46,7 +58,8 @@ public class Solver {
 		System.out.println(original.toString());
 		
 		//Attempt to solve the puzzle and acquire a solution
-		Puzzle solution = Solver.solve(original);
+		SolveEffort effort = new SolveEffort();
+		Puzzle solution = Solver.solve(original, engine, effort);
 		
 		if (solution == null) {
 			System.out.println("Puzzle could not be processed");
@@ -62,6 +75,7 @@ public class Solver {
 		else {
 			System.out.println("The puzzle was not completed");
 		}
+		System.out.println(String.format("Effort: %s", effort.toString()));
 
 		//Output the solution to the output file
 		File fileOutput = new File(fileInput.getName() + ".sln.txt");
@@ -87,11 +101,29 @@ public class Solver {
 	}
 	
 	public static Puzzle solve(Puzzle puzzle) {
+		return solve(puzzle, new SolveEffort());
+	}
+	
+	//Solve the puzzle, recording the amount of work performed into the given effort counters.
+	public static Puzzle solve(Puzzle puzzle, SolveEffort effort) {
+		return solve(puzzle, SolveEngine.Backtracking, effort);
+	}
+	
+	//Solve the puzzle with the given engine, recording the amount of work performed into the
+	//given effort counters.
+	public static Puzzle solve(Puzzle puzzle, SolveEngine engine, SolveEffort effort) {
 		if (!puzzle.hasEnoughCluesToSolve()) {
 			System.out.println("Puzzle does not have the minimum number of clues to be valid");
 			return puzzle;
 		}
 		
+		if (engine == SolveEngine.Cdcl) {
+			return CdclEngine.solve(puzzle, effort);
+		}
+		return solveWithBacktracking(puzzle, effort);
+	}
+	
+	private static Puzzle solveWithBacktracking(Puzzle puzzle, SolveEffort effort) {
 		Puzzle lastResult = puzzle;
 		
 		//Attempt to solve the puzzle with a limit to the recursive depth.  Each time
@@ -100,7 +132,11 @@ public class Solver {
 		//first and breadth-first methods.
 		for (int depthLimit = 0; depthLimit <= DEPTH_LIMIT_MAX; depthLimit++) {
 			System.out.println(String.format("Current Guess Depth Limit: %d", depthLimit));
-			lastResult = solveWorker(puzzle.copy(), 0, depthLimit);
+			if (depthLimit > 0) {
+				effort.addRestart();
+			}
+			effort.addCopy();
+			lastResult = solveWorker(puzzle.copy(), 0, depthLimit, effort);
 			if (lastResult.isFilled()) {
 				return lastResult;
 			}
@@ -108,14 +144,19 @@ public class Solver {
 		return lastResult;
 	}
 	
-	private static Puzzle solveWorker(Puzzle puzzle, int currGuessDepth, int guessDepthLimit) {
+	private static Puzzle solveWorker(Puzzle puzzle, int currGuessDepth, int guessDepthLimit, SolveEffort effort) {
+		effort.addNode();
 		
 		//While there continue to be spaces with only one possible value,
 		//continue to fill them in.  Stop if no progress was made in the
 		//last filling attempt or if the puzzle is finished.
 		while (!puzzle.isFilled() && puzzle.getStatus().isContinueWithOverall()) {
+			effort.addPropagationStep();
 			puzzle.solveNext();
 		}
+		if (puzzle.getStatus() == SolveStatus.Impossible) {
+			effort.addConflict();
+		}
 		
 		//If the puzzle is not solved and there are only squares left that have more than one
 		//possible answer, we must make a recursive guess.
@@ -134,9 +175,11 @@ public class Solver {
 					//For each possibility:
 					for (Integer possibleVal : guess.getPossibleValues()) {
 						
+						effort.addCopy();
+						effort.addGuess();
 						Puzzle puzzleCopy = puzzle.copy();
 						puzzleCopy.getSquare(guess.getRow(), guess.getCol()).setVal(possibleVal);
-						puzzleCopy = solveWorker(puzzleCopy, currGuessDepth+1, guessDepthLimit);
+						puzzleCopy = solveWorker(puzzleCopy, currGuessDepth+1, guessDepthLimit, effort);
 
 						if (puzzleCopy.isFilled()) {
 							return puzzleCopy;
@@ -0,0 +1,87 @@
+package sph.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class CdclEngineTest {
+	
+	@Test
+	void testSolutionKeepsCluesAndFollowsRules() throws IOException {
+		for (String name : new String[] {"puzzle1.txt", "puzzle5.txt", "extra1.txt"}) {
+			ClassLoader classLoader = getClass().getClassLoader();
+			File file = new File(classLoader.getResource(name).getFile());
+			Puzzle puzzle = Puzzle.createPuzzleFromInput(file);
+			
+			Puzzle solution = CdclEngine.solve(puzzle, new SolveEffort());
+			assertTrue(solution.isFilled(), name);
+			
+			for (int row = 0; row < Square.MAX_VALUE; row++) {
+				for (int col = 0; col < Square.MAX_VALUE; col++) {
+					Integer clue = puzzle.getSquare(row, col).getValue();
+					if (clue != null) {
+						assertEquals(clue, solution.getSquare(row, col).getValue(), name);
+					}
+				}
+			}
+			
+			for (int i = 0; i < Square.MAX_VALUE; i++) {
+				int boxRow = (i / Square.BOX_SIZE) * Square.BOX_SIZE;
+				int boxCol = (i % Square.BOX_SIZE) * Square.BOX_SIZE;
+				assertHoldsEveryValue(name, solution.getSquaresInRow(i).toArray(new Square[0]));
+				assertHoldsEveryValue(name, solution.getSquaresInCol(i).toArray(new Square[0]));
+				assertHoldsEveryValue(name, solution.getSquaresInBox(boxRow, boxCol).toArray(new Square[0]));
+			}
+		}
+	}
+	
+	@Test
+	void testContradictoryPuzzleIsNotFilled() {
+		Puzzle puzzle = Puzzle.createEmptyPuzzle();
+		
+		//Eighteen clues, with a 1 repeated in the second row
+		for (int col = 0; col < Square.MAX_VALUE; col++) {
+			puzzle.getSquare(0, col).setVal(col + 1);
+		}
+		for (int col = 0; col < Square.MAX_VALUE - 1; col++) {
+			puzzle.getSquare(1, col).setVal(((col + 3) % Square.MAX_VALUE) + 1);
+		}
+		puzzle.getSquare(1, 8).setVal(1);
+		
+		Puzzle result = CdclEngine.solve(puzzle, new SolveEffort());
+		assertFalse(result.isFilled());
+		assertEquals(puzzle.toString(), result.toString());
+	}
+	
+	@Test
+	void testVariablesAreDistinctAndInRange() {
+		int numVars = Square.MAX_VALUE * Square.MAX_VALUE * Square.MAX_VALUE;
+		Set<Integer> variables = new HashSet<Integer>();
+		for (int row = 0; row < Square.MAX_VALUE; row++) {
+			for (int col = 0; col < Square.MAX_VALUE; col++) {
+				for (int val = 1; val <= Square.MAX_VALUE; val++) {
+					int var = CdclEngine.getVariable(row, col, val);
+					assertTrue(var >= 1 && var <= numVars);
+					variables.add(var);
+				}
+			}
+		}
+		assertEquals(numVars, variables.size());
+	}
+	
+	private void assertHoldsEveryValue(String name, Square[] squares) {
+		Set<Integer> values = new HashSet<Integer>();
+		for (Square square : squares) {
+			values.add(square.getValue());
+		}
+		for (int val = 1; val <= Square.MAX_VALUE; val++) {
+			assertTrue(values.contains(val), name);
+		}
+	}
+
+}
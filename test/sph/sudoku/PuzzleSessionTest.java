@@ -0,0 +1,191 @@
+package sph.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PuzzleSessionTest {
+	
+	private Puzzle loadPuzzle(String name) throws IOException {
+		ClassLoader classLoader = getClass().getClassLoader();
+		File file = new File(classLoader.getResource(name).getFile());
+		return Puzzle.createPuzzleFromInput(file);
+	}
+	
+	@Test
+	void testCandidatesMatchFullScan() throws IOException {
+		PuzzleSession session = new PuzzleSession(loadPuzzle("puzzle1.txt"));
+		Random random = new Random(26);
+		
+		//Apply a deterministic sequence of moves and undos, including illegal ones, and compare the
+		//incremental candidates against a fresh scan of the board after every step.
+		for (int step = 0; step < 2000; step++) {
+			int row = random.nextInt(Square.MAX_VALUE);
+			int col = random.nextInt(Square.MAX_VALUE);
+			int action = random.nextInt(4);
+			if (action == 0) {
+				session.undo();
+			}
+			else if (!session.isClue(row, col)) {
+				if (action == 1) {
+					session.clear(row, col);
+				}
+				else {
+					session.set(row, col, random.nextInt(Square.MAX_VALUE) + 1);
+				}
+			}
+			
+			checkAgainstFullScan(session);
+		}
+	}
+	
+	@Test
+	void testConflictsAndUndo() throws IOException {
+		PuzzleSession session = new PuzzleSession(loadPuzzle("puzzle1.txt"));
+		assertFalse(session.hasConflicts());
+		
+		//Row 0 already holds a 1 in column 3
+		session.set(0, 0, 1);
+		assertTrue(session.isConflicting(0, 0));
+		assertTrue(session.isConflicting(0, 3));
+		assertTrue(session.hasConflicts());
+		assertFalse(session.isStillSolvable());
+		
+		session.set(0, 0, 4);
+		assertFalse(session.hasConflicts());
+		
+		assertTrue(session.undo());
+		assertEquals(1, (int)session.getValue(0, 0));
+		assertTrue(session.hasConflicts());
+		
+		assertTrue(session.undo());
+		assertNull(session.getValue(0, 0));
+		assertFalse(session.hasConflicts());
+		assertFalse(session.undo());
+	}
+	
+	@Test
+	void testCluesCannotBeChanged() throws IOException {
+		PuzzleSession session = new PuzzleSession(loadPuzzle("puzzle1.txt"));
+		assertTrue(session.isClue(0, 3));
+		assertThrows(IllegalStateException.class, () -> session.set(0, 3, 2));
+		assertThrows(IllegalStateException.class, () -> session.clear(0, 3));
+		assertThrows(IllegalArgumentException.class, () -> session.set(0, 0, 0));
+	}
+	
+	@Test
+	void testHintsSolvePuzzle() throws IOException {
+		PuzzleSession session = new PuzzleSession(loadPuzzle("puzzle1.txt"));
+		
+		GuessData hint = session.getNextHint();
+		while (hint != null) {
+			session.set(hint.getRow(), hint.getCol(), hint.getPossibleValues().get(0));
+			hint = session.getNextHint();
+		}
+		
+		assertTrue(session.isSolved());
+		assertEquals(4, (int)session.getValue(0, 0));
+		assertEquals(6, (int)session.getValue(8, 8));
+	}
+	
+	@Test
+	void testStillSolvable() throws IOException {
+		PuzzleSession session = new PuzzleSession(loadPuzzle("extra1.txt"));
+		assertTrue(session.isStillSolvable());
+		
+		//The solution has 1 in the top left square; 3 breaks no rule but leads nowhere
+		session.set(0, 0, 3);
+		assertFalse(session.hasConflicts());
+		assertFalse(session.isStillSolvable());
+		
+		session.set(0, 0, 1);
+		assertTrue(session.isStillSolvable());
+	}
+	
+	//A sparse board with no conflicts that cannot be completed.  A plain depth-first search runs for
+	//minutes before proving this, so the answer must come back quickly.
+	@Test
+	void testSparseUnsolvableBoard() {
+		PuzzleSession session = createSession(new String[] {
+			"XXXXX9XXX",
+			"2XXXXX6XX",
+			"XXXXXXXXX",
+			"XXXXXXX3X",
+			"XXXXXXXXX",
+			"X2X4X1XXX",
+			"XXXXXXXX2",
+			"XX1XXXXXX",
+			"XX3XXXXXX"
+		});
+		assertFalse(session.hasConflicts());
+		assertFalse(session.isStillSolvable());
+		
+		assertTrue(session.undo());
+		assertTrue(session.isStillSolvable());
+	}
+	
+	@Test
+	void testNoHintWithoutCandidates() {
+		//The top left square sees 1-8 in its row and 9 in its column, but nothing conflicts
+		PuzzleSession session = createSession(new String[] {
+			"X12345678",
+			"9XXXXXXXX",
+			"XXXXXXXXX",
+			"XXXXXXXXX",
+			"XXXXXXXXX",
+			"XXXXXXXXX",
+			"XXXXXXXXX",
+			"XXXXXXXXX",
+			"XXXXXXXXX"
+		});
+		assertFalse(session.hasConflicts());
+		assertTrue(session.getCandidates(0, 0).isEmpty());
+		assertNull(session.getNextHint());
+		assertFalse(session.isStillSolvable());
+	}
+	
+	//Start from an empty puzzle and play each value in the rows, in order, as moves
+	private PuzzleSession createSession(String[] rows) {
+		PuzzleSession session = new PuzzleSession(Puzzle.createEmptyPuzzle());
+		for (int row = 0; row < rows.length; row++) {
+			for (int col = 0; col < rows[row].length(); col++) {
+				char c = rows[row].charAt(col);
+				if (Character.isDigit(c)) {
+					session.set(row, col, c - '0');
+				}
+			}
+		}
+		return session;
+	}
+	
+	private void checkAgainstFullScan(PuzzleSession session) {
+		Puzzle puzzle = session.getPuzzle();
+		for (int row = 0; row < Square.MAX_VALUE; row++) {
+			for (int col = 0; col < Square.MAX_VALUE; col++) {
+				Integer val = puzzle.getSquare(row, col).getValue();
+				assertEquals(val, session.getValue(row, col));
+				
+				//The full scan reports only the square's own value for filled squares, so compare
+				//candidates with the square emptied.
+				puzzle.getSquare(row, col).setVal(null);
+				assertEquals(puzzle.getPossibleValuesFromRelatedSquares(row, col), session.getCandidates(row, col));
+				puzzle.getSquare(row, col).setVal(val);
+				
+				boolean conflicting = false;
+				if (val != null) {
+					for (Square related : puzzle.getRelatedSquares(row, col)) {
+						if (related != puzzle.getSquare(row, col) && val.equals(related.getValue())) {
+							conflicting = true;
+						}
+					}
+				}
+				assertEquals(conflicting, session.isConflicting(row, col));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package sph.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SatSolverTest {
+	
+	@Test
+	void testSatisfiableModel() {
+		int[][] clauses = new int[][] {
+			{1, 2}, {-1, 3}, {-2, -3}, {-3, 4}, {-4, -1, 2}, {2, 3, -4}
+		};
+		SatSolver sat = new SatSolver(4, new SolveEffort());
+		for (int[] clause : clauses) {
+			assertTrue(sat.addClause(clause));
+		}
+		
+		assertTrue(sat.solve());
+		for (int[] clause : clauses) {
+			boolean satisfied = false;
+			for (int literal : clause) {
+				satisfied |= sat.getValue(Math.abs(literal)) == (literal > 0);
+			}
+			assertTrue(satisfied);
+		}
+	}
+	
+	//Three pigeons cannot fit into two holes.  This cannot be decided by propagation alone, so it
+	//requires conflict analysis and learning to prove.
+	@Test
+	void testPigeonholeIsUnsatisfiable() {
+		SolveEffort effort = new SolveEffort();
+		SatSolver sat = createPigeonhole(3, 2, effort);
+		
+		assertFalse(sat.solve());
+		assertTrue(effort.getConflicts() > 0);
+	}
+	
+	//A larger pigeonhole instance takes enough conflicts to pass the first restart limit.
+	@Test
+	void testRestartsDuringLongSearch() {
+		SolveEffort effort = new SolveEffort();
+		SatSolver sat = createPigeonhole(7, 6, effort);
+		
+		assertFalse(sat.solve());
+		assertTrue(effort.getRestarts() > 0);
+	}
+	
+	//Build the formula placing each pigeon in some hole, with no two pigeons sharing a hole.
+	private SatSolver createPigeonhole(int pigeons, int holes, SolveEffort effort) {
+		SatSolver sat = new SatSolver(pigeons * holes, effort);
+		
+		for (int p = 0; p < pigeons; p++) {
+			int[] clause = new int[holes];
+			for (int h = 0; h < holes; h++) {
+				clause[h] = p * holes + h + 1;
+			}
+			sat.addClause(clause);
+		}
+		for (int h = 0; h < holes; h++) {
+			for (int p1 = 0; p1 < pigeons; p1++) {
+				for (int p2 = p1 + 1; p2 < pigeons; p2++) {
+					sat.addClause(-(p1 * holes + h + 1), -(p2 * holes + h + 1));
+				}
+			}
+		}
+		return sat;
+	}
+	
+	@Test
+	void testConflictingUnitClauses() {
+		SolveEffort effort = new SolveEffort();
+		SatSolver sat = new SatSolver(1, effort);
+		assertTrue(sat.addClause(1));
+		assertFalse(sat.addClause(-1));
+		assertFalse(sat.solve());
+		assertEquals(1, effort.getConflicts());
+	}
+	
+	@Test
+	void testLubySequence() {
+		long[] expected = new long[] {1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1};
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], SatSolver.luby(i + 1));
+		}
+	}
+
+}
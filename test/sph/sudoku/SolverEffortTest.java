@@ -0,0 +1,272 @@
+package sph.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+//Regression suite that solves every puzzle in the input directory with every engine, and every
+//puzzle in the pathological directory with the CDCL engine, checks each result against its
+//".sln.txt" expectation, and compares the deterministic effort counters against a stored
+//baseline.  Any counter exceeding its baseline by more than the tolerance fails the test.  On every
+//puzzle where backtracking has to guess, the CDCL engine must also visit fewer search nodes than
+//backtracking, which benchmarks the engines against each other.
+//
+//Running backtracking on the pathological tier takes about two minutes, so that benchmark has its
+//own baseline file and only runs when the tests are given -Dsudoku.slowTests=true.
+//
+//To deliberately accept new effort numbers (e.g. after an intended algorithm change), run the
+//tests with -Dsudoku.updateEffortBaseline=true, which rewrites the baseline files of the tests
+//that run instead of comparing against them.
+class SolverEffortTest {
+	
+	private static final File INPUT_DIRECTORY = new File("input");
+	private static final File PATHOLOGICAL_DIRECTORY = new File("pathological");
+	private static final File BASELINE_FILE = new File("effort-baseline.txt");
+	private static final File SLOW_BASELINE_FILE = new File("effort-baseline-slow.txt");
+	private static final String SOLUTION_SUFFIX = ".sln.txt";
+	private static final String UPDATE_BASELINE_PROPERTY = "sudoku.updateEffortBaseline";
+	private static final String SLOW_TESTS_PROPERTY = "sudoku.slowTests";
+	private static final int TOLERANCE_PERCENT = 10;
+	private static final String[] COUNTER_NAMES = new String[] {
+		"nodes", "guesses", "copies", "propagationSteps", "conflicts", "restarts"
+	};
+	
+	//Backtracking was still running on this puzzle after 300 seconds, so only the CDCL engine is
+	//measured on it.
+	private static final String BACKTRACKING_TOO_SLOW = "inkala.txt";
+	
+	@Test
+	void testEffortWithinBaseline() throws IOException {
+		Map<String, SolveEffort> measured = new LinkedHashMap<String, SolveEffort>();
+		for (SolveEngine engine : SolveEngine.values()) {
+			measureCorpus(INPUT_DIRECTORY, engine, measured);
+		}
+		measureCorpus(PATHOLOGICAL_DIRECTORY, SolveEngine.Cdcl, measured);
+		
+		List<String> failures = new ArrayList<String>();
+		checkCdclSearchesLessThanBacktracking(measured, failures);
+		checkBaseline(BASELINE_FILE, measured, failures);
+		
+		assertTrue(failures.isEmpty(), String.join("\n", failures));
+	}
+	
+	//Benchmark backtracking against the CDCL engine on the pathological tier.  Only the backtracking
+	//results are kept in the slow baseline; the CDCL results are covered by testEffortWithinBaseline.
+	@Test
+	void testBacktrackingOnPathologicalTier() throws IOException {
+		assumeTrue(Boolean.getBoolean(SLOW_TESTS_PROPERTY),
+				String.format("Takes minutes; run with -D%s=true", SLOW_TESTS_PROPERTY));
+		
+		Map<String, SolveEffort> backtracking = new LinkedHashMap<String, SolveEffort>();
+		measureCorpus(PATHOLOGICAL_DIRECTORY, SolveEngine.Backtracking, backtracking);
+		
+		Map<String, SolveEffort> bothEngines = new LinkedHashMap<String, SolveEffort>(backtracking);
+		measureCorpus(PATHOLOGICAL_DIRECTORY, SolveEngine.Cdcl, bothEngines);
+		
+		List<String> failures = new ArrayList<String>();
+		checkCdclSearchesLessThanBacktracking(bothEngines, failures);
+		checkBaseline(SLOW_BASELINE_FILE, backtracking, failures);
+		
+		assertTrue(failures.isEmpty(), String.join("\n", failures));
+	}
+	
+	@Test
+	void testEffortIsDeterministic() throws IOException {
+		File puzzleFile = new File(INPUT_DIRECTORY, "puzzle5.txt");
+		
+		for (SolveEngine engine : SolveEngine.values()) {
+			SolveEffort first = new SolveEffort();
+			Solver.solve(Puzzle.createPuzzleFromInput(puzzleFile), engine, first);
+			SolveEffort second = new SolveEffort();
+			Solver.solve(Puzzle.createPuzzleFromInput(puzzleFile), engine, second);
+			
+			assertArrayEquals(toCounters(first), toCounters(second), engine.toString());
+		}
+	}
+	
+	//Solve every puzzle in the directory with the engine, check each solution, and record the effort
+	//under the key "puzzle engine".
+	private void measureCorpus(File directory, SolveEngine engine, Map<String, SolveEffort> measured) throws IOException {
+		for (File puzzleFile : getCorpus(directory)) {
+			if (engine == SolveEngine.Backtracking && puzzleFile.getName().equals(BACKTRACKING_TOO_SLOW)) {
+				continue;
+			}
+			
+			SolveEffort effort = new SolveEffort();
+			Puzzle solution = Solver.solve(Puzzle.createPuzzleFromInput(puzzleFile), engine, effort);
+			String key = puzzleFile.getName() + " " + engine;
+			
+			assertTrue(solution.isFilled(), String.format("%s was not solved", key));
+			assertEquals(readExpectedSolution(puzzleFile), solution.toString(),
+					String.format("%s does not match its expected solution", key));
+			
+			measured.put(key, effort);
+		}
+	}
+	
+	//Benchmark the engines against each other.  On every puzzle that needed at least one guess from
+	//backtracking, the clause-learning engine should visit fewer search nodes.
+	private void checkCdclSearchesLessThanBacktracking(Map<String, SolveEffort> measured, List<String> failures) {
+		String suffix = " " + SolveEngine.Backtracking;
+		for (Map.Entry<String, SolveEffort> entry : measured.entrySet()) {
+			if (!entry.getKey().endsWith(suffix)) {
+				continue;
+			}
+			String name = entry.getKey().substring(0, entry.getKey().length() - suffix.length());
+			SolveEffort backtracking = entry.getValue();
+			SolveEffort cdcl = measured.get(name + " " + SolveEngine.Cdcl);
+			
+			if (backtracking.getGuesses() > 0 && cdcl != null && cdcl.getNodes() >= backtracking.getNodes()) {
+				failures.add(String.format("%s: Cdcl visited %d nodes, Backtracking %d",
+						name, cdcl.getNodes(), backtracking.getNodes()));
+			}
+		}
+	}
+	
+	//Compare the measured effort against the baseline file, recording a failure for every counter over
+	//its tolerance and for every entry present on only one side.  In update mode the baseline file is
+	//rewritten from the measured effort instead.
+	private void checkBaseline(File baselineFile, Map<String, SolveEffort> measured, List<String> failures) throws IOException {
+		if (Boolean.getBoolean(UPDATE_BASELINE_PROPERTY)) {
+			writeBaseline(baselineFile, measured);
+			return;
+		}
+		
+		Map<String, long[]> baseline = readBaseline(baselineFile);
+		for (Map.Entry<String, SolveEffort> entry : measured.entrySet()) {
+			long[] expected = baseline.get(entry.getKey());
+			if (expected == null) {
+				failures.add(String.format("%s has no entry in %s", entry.getKey(), baselineFile));
+				continue;
+			}
+			checkCounters(entry.getKey(), expected, toCounters(entry.getValue()), failures);
+		}
+		for (String key : baseline.keySet()) {
+			if (!measured.containsKey(key)) {
+				failures.add(String.format("%s has an entry in %s but was not measured", key, baselineFile));
+			}
+		}
+	}
+	
+	//Return every puzzle file in the directory, sorted by name so that the baseline file is
+	//written in a stable order.
+	private List<File> getCorpus(File directory) {
+		File[] files = directory.listFiles();
+		assertNotNull(files, String.format("Could not list %s", directory.getAbsolutePath()));
+		Arrays.sort(files);
+		
+		List<File> corpus = new ArrayList<File>();
+		for (File file : files) {
+			if (file.isFile()) {
+				corpus.add(file);
+			}
+		}
+		return corpus;
+	}
+
+	//Compare each measured counter against its baseline value and record a message for each one
+	//that exceeds the allowed tolerance.
+	private void checkCounters(String name, long[] expected, long[] actual, List<String> failures) {
+		for (int i = 0; i < COUNTER_NAMES.length; i++) {
+			long allowed = expected[i] + expected[i] * TOLERANCE_PERCENT / 100;
+			if (actual[i] > allowed) {
+				failures.add(String.format("%s: %s was %d, baseline %d (allowed up to %d)",
+						name, COUNTER_NAMES[i], actual[i], expected[i], allowed));
+			}
+		}
+	}
+	
+	private long[] toCounters(SolveEffort effort) {
+		return new long[] {
+			effort.getNodes(), effort.getGuesses(), effort.getCopies(), effort.getPropagationSteps(),
+			effort.getConflicts(), effort.getRestarts()
+		};
+	}
+	
+	private String readExpectedSolution(File puzzleFile) throws IOException {
+		File solutionFile = new File(puzzleFile.getName() + SOLUTION_SUFFIX);
+		StringBuilder sb = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new FileReader(solutionFile));
+		try {
+			String line = null;
+			while ((line = reader.readLine()) != null) {
+				if (line.length() > 0) {
+					sb.append(line).append('\n');
+				}
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return sb.toString();
+	}
+	
+	//Read the baseline file.  Each non-comment line holds a puzzle name and engine followed by its
+	//nodes, guesses, copies, propagation steps, conflicts and restarts, separated by whitespace.
+	private Map<String, long[]> readBaseline(File baselineFile) throws IOException {
+		Map<String, long[]> baseline = new LinkedHashMap<String, long[]>();
+		BufferedReader reader = new BufferedReader(new FileReader(baselineFile));
+		try {
+			String line = null;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.length() == 0 || line.startsWith("#")) {
+					continue;
+				}
+				String[] fields = line.split("\\s+");
+				if (fields.length != COUNTER_NAMES.length + 2) {
+					fail(String.format("%s line %d: expected a puzzle, an engine and %d counters but found \"%s\"",
+							baselineFile, lineNumber, COUNTER_NAMES.length, line));
+				}
+				long[] counters = new long[COUNTER_NAMES.length];
+				for (int i = 0; i < COUNTER_NAMES.length; i++) {
+					try {
+						counters[i] = Long.parseLong(fields[i + 2]);
+					}
+					catch (NumberFormatException ex) {
+						fail(String.format("%s line %d: %s is not a number: \"%s\"",
+								baselineFile, lineNumber, COUNTER_NAMES[i], fields[i + 2]));
+					}
+				}
+				baseline.put(fields[0] + " " + fields[1], counters);
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return baseline;
+	}
+	
+	private void writeBaseline(File baselineFile, Map<String, SolveEffort> measured) throws IOException {
+		BufferedWriter writer = new BufferedWriter(new FileWriter(baselineFile));
+		try {
+			writer.write("#puzzle engine " + String.join(" ", COUNTER_NAMES) + "\n");
+			for (Map.Entry<String, SolveEffort> entry : measured.entrySet()) {
+				writer.write(entry.getKey());
+				for (long counter : toCounters(entry.getValue())) {
+					writer.write(" " + counter);
+				}
+				writer.write("\n");
+			}
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+}